@@ -1,6 +1,7 @@
 package app;
 
 import app.command.CommandManager;
+import app.controller.SubscriptionController;
 import app.entity.Announcement;
 import app.listener.AnnouncementListener;
 
@@ -8,11 +9,15 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import java.awt.*;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import net.dv8tion.jda.api.AccountType;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.TextChannel;
 import org.slf4j.LoggerFactory;
 
@@ -23,15 +28,19 @@ public class DiscordBot implements AnnouncementListener {
 
     private JDA dbot;
     private TextChannel txtChannel;
+    private SubscriptionController subscriptionController;
 
     /**
      * Creates the Discord bot.
      *
      * @param token         the Discord bots API token from Discord Developer Portal
      * @param channelId     channel id of the channel where the bot posts announcements
+     * @param sc            controller with the users' subscriptions to announcements
      * @throws Exception    when the discord bot couldn't be created
      */
-    public DiscordBot(String token, String channelId) throws Exception {
+    public DiscordBot(String token, String channelId, SubscriptionController sc) throws Exception {
+        subscriptionController = sc;
+
         Logger jdaLogger = (Logger) LoggerFactory.getLogger("net.dv8tion.jda");
         jdaLogger.setLevel(Level.INFO);
 
@@ -42,7 +51,7 @@ public class DiscordBot implements AnnouncementListener {
                 .awaitReady();
 
         // Add command event lister
-        dbot.addEventListener(new CommandManager());
+        dbot.addEventListener(new CommandManager(subscriptionController));
 
         // Set the channel where announcements will be submitted
         txtChannel = dbot.getTextChannelById(channelId);
@@ -51,34 +60,67 @@ public class DiscordBot implements AnnouncementListener {
         jdaLogger.setLevel(Level.ERROR);
     }
 
+    /**
+     * Creates a discord embed showing the announcement. Announcements posted to several subjects list all of
+     * the subjects.
+     * @param a     announcement to show
+     * @return      embed ready to be sent
+     */
+    private MessageEmbed createEmbed(Announcement a) {
+        String body;
+
+        // Discord limits message bodies up to 2048 characters and it must be chopped down
+        if (a.getBody().length() > 2048) {
+            body = a.getBody().substring(0, 2041).concat("\n\n...");
+        } else {
+            body = a.getBody();
+        }
+
+        return new EmbedBuilder()
+                .setTitle(a.getTitle())
+                .setDescription(body)
+                .setFooter(a.getAuthor().concat(" - ").concat(String.join(", ", a.getSubjects())),
+                    dbot.getSelfUser().getAvatarUrl())
+                .setTimestamp(Instant.ofEpochMilli(a.getTimestamp()))
+                .setColor(Color.GREEN)
+                .build();
+    }
+
     /**
      * Sends all announcements provided to the discord channel in separate discord embeds.
      * @param announcements     announcements to publish to the discord text channel
      */
     private void publishAnnouncements(Announcement[] announcements) {
         for (Announcement a : announcements) {
-            String body;
-
-            // Discord limits message bodies up to 2048 characters and it must be chopped down
-            if (a.getBody().length() > 2048) {
-                body = a.getBody().substring(0, 2041).concat("\n\n...");
-            } else {
-                body = a.getBody();
-            }
+            // Send the embed as message to the channel
+            txtChannel.sendMessage(createEmbed(a)).queue();
+        }
+    }
 
-            // Create an embed for announcement
-            EmbedBuilder embed = new EmbedBuilder()
-                    .setTitle(a.getTitle())
-                    .setDescription(body)
-                    .setFooter(a.getAuthor().concat(" - ").concat(a.getSubject()), dbot.getSelfUser().getAvatarUrl())
-                    .setTimestamp(Instant.ofEpochMilli(a.getTimestamp()))
-                    .setColor(Color.GREEN);
+    /**
+     * Sends each announcement as a direct message to the users who have subscribed to it.
+     * @param announcements     announcements to match against the subscriptions
+     */
+    private void notifySubscribers(Announcement[] announcements) {
+        for (Announcement a : announcements) {
+            MessageEmbed embed = createEmbed(a);
 
-            // Send the embed as message to the channel
-            txtChannel.sendMessage(embed.build()).queue();
+            for (String userId : subscriptionController.getSubscribers(a)) {
+                sendDirectMessage(userId, embed);
+            }
         }
     }
 
+    /**
+     * Sends an embed to a user as a direct message.
+     * @param userId    Discord user id
+     * @param embed     embed to send
+     */
+    private void sendDirectMessage(String userId, MessageEmbed embed) {
+        dbot.retrieveUserById(userId).queue(user -> user.openPrivateChannel().queue(
+            channel -> channel.sendMessage(embed).queue()));
+    }
+
     /**
      * Sums up all the provided announcements to their titles and a unique identifier.
      * @param announcements     a set of announcement
@@ -102,8 +144,44 @@ public class DiscordBot implements AnnouncementListener {
     @Override
     public void update(Announcement[] newAnnouncements) {
         publishAnnouncements(newAnnouncements);
+        notifySubscribers(newAnnouncements);
 
         // TODO This will be used to get the overview of the announcement using Discord commands
         //publishAnnouncementTitles(newAnnouncements);
     }
+
+    /**
+     * Posts a short follow-up to the channel telling that an announcement already posted there has been posted
+     * to another subject as well. Users subscribed to the copy, but not to the original, get the whole
+     * announcement as a direct message.
+     * @param original      announcement already posted, not yet including the copy
+     * @param copy          the same announcement posted to another subject
+     */
+    @Override
+    public void crossPosted(Announcement original, Announcement copy) {
+        List<String> subjects = new ArrayList<>(original.getSubjects());
+        if (!subjects.contains(copy.getSubject())) {
+            subjects.add(copy.getSubject());
+        }
+
+        MessageEmbed followUp = new EmbedBuilder()
+                .setTitle(original.getTitle())
+                .setDescription("Also posted to ".concat(copy.getSubject()))
+                .setFooter(original.getAuthor().concat(" - ").concat(String.join(", ", subjects)),
+                    dbot.getSelfUser().getAvatarUrl())
+                .setTimestamp(Instant.ofEpochMilli(copy.getTimestamp()))
+                .setColor(Color.GREEN)
+                .build();
+
+        txtChannel.sendMessage(followUp).queue();
+
+        Set<String> alreadyNotified = subscriptionController.getSubscribers(original);
+        MessageEmbed embed = createEmbed(copy);
+
+        for (String userId : subscriptionController.getSubscribers(copy)) {
+            if (!alreadyNotified.contains(userId)) {
+                sendDirectMessage(userId, embed);
+            }
+        }
+    }
 }
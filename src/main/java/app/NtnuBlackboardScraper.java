@@ -14,7 +14,9 @@ import com.gargoylesoftware.htmlunit.util.NameValuePair;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import org.eclipse.jetty.util.security.Credential;
 import org.json.simple.JSONArray;
@@ -130,6 +132,16 @@ public class NtnuBlackboardScraper implements BlackboardScraper {
         JSONParser jsonParser = new JSONParser();
         JSONObject json = (JSONObject) jsonParser.parse(jsonString);
 
+        // Course names are listed separately from the announcements, look them up by course id
+        Map<String, String> courseNames = new HashMap<>();
+        JSONObject extras = (JSONObject) json.get("sv_extras");
+        if (extras != null && extras.get("sx_courses") != null) {
+            for (Object courseObj : (JSONArray) extras.get("sx_courses")) {
+                JSONObject course = (JSONObject) courseObj;
+                courseNames.put((String) course.get("id"), (String) course.get("name"));
+            }
+        }
+
         // Go into the key containing the announcements
         JSONArray stream = (JSONArray) json.get("sv_streamEntries");
         List<Announcement> announcements = new ArrayList<>();
@@ -143,6 +155,8 @@ public class NtnuBlackboardScraper implements BlackboardScraper {
 
             // Relevant announcement data are gathered from this point
             long timestamp = (long) entry.get("se_timestamp");
+            String entryId = (String) entry.get("se_id");
+            String courseId = (String) entry.get("se_courseId");
 
             long id = (long) notificationDetails.get("actorId");
             String title = (String) notificationDetails.get("announcementTitle");
@@ -150,17 +164,20 @@ public class NtnuBlackboardScraper implements BlackboardScraper {
             String authorFirstName = (String) notificationDetails.get("announcementFirstName");
             String authorLastName = (String) notificationDetails.get("announcementLastName");
 
+            // System announcements have no course
+            String subject = courseNames.getOrDefault(courseId, "unknown subject");
+
             // Make sure the announcement is valid by checking for null values in title and body
             if (title != null && body != null) {
                 // Add new announcement
                 announcements.add(new Announcement(
                     id,
+                    entryId,
                     title,
                     WebTools.cleanseTextFromHtmlTags(body),
                     timestamp,
                     authorFirstName.concat(" ").concat(authorLastName),
-                    // TODO fetch subject name using the announcement subject ID
-                    "unknown subject")
+                    subject)
                 );
             }
         }
@@ -1,6 +1,7 @@
 package app;
 
 import app.controller.AnnouncementController;
+import app.controller.SubscriptionController;
 import app.util.Config;
 
 public class XLauncher {
@@ -11,12 +12,14 @@ public class XLauncher {
         String username     = Config.getInstance().getString("username");
         String password     = Config.getInstance().getString("password");
         String token        = Config.getInstance().getString("token");
+        String subFile      = Config.getInstance().getString("subscriptions_file");
 
         int interval        = Config.getInstance().getInt("interval");
 
         NtnuBlackboardScraper bs = new NtnuBlackboardScraper(username, password);
         AnnouncementController ac = new AnnouncementController(bs, interval);
-        DiscordBot db = new DiscordBot(token, channelId);
+        SubscriptionController sc = new SubscriptionController(subFile != null ? subFile : "subscriptions.json");
+        DiscordBot db = new DiscordBot(token, channelId, sc);
 
         ac.addListener(db);
         ac.startPeriodicalScraping();
@@ -1,5 +1,11 @@
 package app.command;
 
+import app.controller.SubscriptionController;
+import app.entity.Subscription;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
 import javax.annotation.Nonnull;
 import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
@@ -8,6 +14,16 @@ import net.dv8tion.jda.api.hooks.ListenerAdapter;
  * This class is responsible for handling command related events.
  */
 public class CommandManager extends ListenerAdapter {
+    private SubscriptionController subscriptionController;
+
+    /**
+     * Creates the command manager.
+     *
+     * @param sc    controller that stores the subscriptions managed through commands
+     */
+    public CommandManager(SubscriptionController sc) {
+        subscriptionController = sc;
+    }
 
     /**
      * This event is fired when indicated that a message is received in a TextChannel. We use it to
@@ -44,9 +60,21 @@ public class CommandManager extends ListenerAdapter {
                     event.getChannel().sendMessage("Slap you back✋").queue();
                     break;
 
+                case "sub":
+                    subscribe(event);
+                    break;
+
+                case "unsub":
+                    unsubscribe(event, message);
+                    break;
+
+                case "subs":
+                    listSubscriptions(event);
+                    break;
+
                 default: // Just a dummy helper, create a nice help menu when implementing real commands
                     event.getChannel().sendMessage(""
-                        + "Supported commands are: hi, hug, slap").queue();
+                        + "Supported commands are: hi, hug, slap, sub, unsub, subs").queue();
                     break;
             }
             // If command format is wrong return a helper message
@@ -54,4 +82,91 @@ public class CommandManager extends ListenerAdapter {
             event.getChannel().sendMessage("Please use this format: !bb COMMAND [options]").queue();
         }
     }
+
+    /**
+     * Subscribes the author of the message to announcements matching a filter. Matching announcements are sent
+     * to the user as direct messages. Format: !bb sub course|author|keyword|regex VALUE
+     *
+     * @param event     event of the message containing the command
+     */
+    private void subscribe(GuildMessageReceivedEvent event) {
+        // The value is everything after the type, as typed, since it may contain spaces, e.g. author names
+        String[] parts = event.getMessage().getContentRaw().trim().split("\\s+", 4);
+        Subscription.Type type = null;
+
+        if (parts.length == 4) {
+            type = Arrays.stream(Subscription.Type.values())
+                .filter(t -> t.name().equalsIgnoreCase(parts[2]))
+                .findFirst()
+                .orElse(null);
+        }
+
+        if (type == null) {
+            event.getChannel()
+                .sendMessage("Please use this format: !bb sub course|author|keyword|regex VALUE")
+                .queue();
+            return;
+        }
+
+        String value = parts[3];
+
+        try {
+            subscriptionController.subscribe(new Subscription(event.getAuthor().getId(), type, value));
+            event.getChannel()
+                .sendMessage("Subscribed to " + type.name().toLowerCase() + " \"" + value + "\"")
+                .queue();
+        } catch (PatternSyntaxException e) {
+            event.getChannel().sendMessage("Invalid regular expression: " + e.getDescription()).queue();
+        } catch (IllegalArgumentException e) {
+            event.getChannel().sendMessage(e.getMessage()).queue();
+        }
+    }
+
+    /**
+     * Removes one of the subscriptions of the author of the message. Format: !bb unsub NUMBER
+     *
+     * @param event     event of the message containing the command
+     * @param message   the message split on spaces
+     */
+    private void unsubscribe(GuildMessageReceivedEvent event, String[] message) {
+        Subscription removed = null;
+
+        if (message.length == 3 && message[2].matches("\\d{1,9}")) {
+            removed = subscriptionController.unsubscribe(event.getAuthor().getId(), Integer.parseInt(message[2]));
+        }
+
+        if (removed == null) {
+            event.getChannel()
+                .sendMessage("Please use this format: !bb unsub NUMBER (see !bb subs)")
+                .queue();
+        } else {
+            event.getChannel()
+                .sendMessage("Unsubscribed from " + removed.getType().name().toLowerCase()
+                    + " \"" + removed.getValue() + "\"")
+                .queue();
+        }
+    }
+
+    /**
+     * Lists the subscriptions of the author of the message, numbered for use with unsub.
+     *
+     * @param event     event of the message containing the command
+     */
+    private void listSubscriptions(GuildMessageReceivedEvent event) {
+        List<Subscription> subscriptions = subscriptionController.getSubscriptions(event.getAuthor().getId());
+
+        if (subscriptions.isEmpty()) {
+            event.getChannel().sendMessage("You have no subscriptions").queue();
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder("Your subscriptions:");
+        for (int i = 0; i < subscriptions.size(); i++) {
+            Subscription s = subscriptions.get(i);
+            sb.append("\n").append(i + 1).append(". ")
+                .append(s.getType().name().toLowerCase()).append(" \"").append(s.getValue()).append("\"");
+        }
+
+        event.getChannel().sendMessage(sb.toString()).queue();
+    }
 }
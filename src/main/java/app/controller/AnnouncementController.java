@@ -3,9 +3,12 @@ package app.controller;
 import app.BlackboardScraper;
 import app.listener.AnnouncementListener;
 import app.entity.Announcement;
+import app.util.MinHashIndex;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
@@ -14,10 +17,17 @@ import java.util.concurrent.TimeUnit;
  * objects that has subscribed to Blackboard announcements.
  */
 public class AnnouncementController {
+    // Minimum similarity of two announcement bodies (Jaccard over word shingles) to be seen as the same announcement
+    private static final double SIMILARITY_THRESHOLD = 0.7;
+    // Only announcements by the same author posted this close in time are grouped as cross-posts
+    private static final long CROSS_POST_WINDOW = TimeUnit.HOURS.toMillis(1);
+
     private int interval;
     private BlackboardScraper blackboardScraper;
     private List<Announcement> announcements;
     private List<AnnouncementListener> listeners;
+    private Set<String> seenEntries;
+    private MinHashIndex<Announcement> similarityIndex;
 
     /**
      * Creates an announcement controller.
@@ -30,6 +40,8 @@ public class AnnouncementController {
         interval = pullInterval;
         announcements = new ArrayList<>();
         listeners = new ArrayList<>();
+        seenEntries = new HashSet<>();
+        similarityIndex = new MinHashIndex<>(SIMILARITY_THRESHOLD);
     }
 
     /**
@@ -41,27 +53,36 @@ public class AnnouncementController {
     }
 
     /**
-     * Adds announcement given that they are unique. To validate its uniqueness, compare the title of the current
-     * announcement with all of the announcements. Any announcements that are not unique are disregarded.
+     * Adds announcement given that it has not been seen before. Entries already received in an earlier pull are
+     * disregarded. If the announcement is a cross-post, i.e. its body is nearly the same as the body of an
+     * announcement by the same author posted shortly before or after, it is attached to that announcement instead
+     * of being added. Copies often arrive in a later pull than the original, so if the original has already been
+     * read, the listeners are told about the copy separately. Copies posted outside the time window start a new
+     * group and are published as new announcements.
      *
      * @param newAnnouncement       announcement to add to the collection
      */
     private void addAnnouncement(Announcement newAnnouncement) {
-        // Bool for checking if the announcement is unique.
-        boolean aExists = false;
+        // The stream returns the same entries on every pull
+        if (!seenEntries.add(newAnnouncement.getEntryId())) {
+            return;
+        }
 
-        // TODO: replace with while loop
-        // Check if previously added announcement titles matches the current announcement
-        for (Announcement a : announcements) {
-            if (a.getTitle().equals(newAnnouncement.getTitle())) {
-                aExists = true;
+        Announcement original = similarityIndex.findSimilar(newAnnouncement.getBody(), a ->
+                a.getAuthor().equals(newAnnouncement.getAuthor())
+                && Math.abs(a.getTimestamp() - newAnnouncement.getTimestamp()) <= CROSS_POST_WINDOW);
+
+        if (original != null) {
+            // Unread originals are published later along with all of their cross-posts
+            if (!original.hasNotBeenRead()) {
+                notifyCrossPost(original, newAnnouncement);
             }
+            original.addCrossPost(newAnnouncement);
+            return;
         }
 
-        // Add only if the announcement is unique
-        if (!aExists) {
-            announcements.add(newAnnouncement);
-        }
+        similarityIndex.add(newAnnouncement, newAnnouncement.getBody());
+        announcements.add(newAnnouncement);
     }
 
     /**
@@ -109,8 +130,14 @@ public class AnnouncementController {
             @Override
             public void run() {
                 try {
-                    // Parse the JSON string, convert them into announcement and return new announcements for the event
-                    notifyListeners(blackboardScraper.getAnnouncements());
+                    // Store the scraped announcements, grouping cross-posts, and send the new ones along the event
+                    for (Announcement a : blackboardScraper.getAnnouncements()) {
+                        addAnnouncement(a);
+                    }
+
+                    if (isNewAnnouncements()) {
+                        notifyListeners(getUnreadAnnouncements());
+                    }
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -145,4 +172,16 @@ public class AnnouncementController {
             c.update(unreadAnnouncements);
         }
     }
+
+    /**
+     * When a copy of an announcement that has already been sent to the listeners is found, notify all the
+     * listeners about the copy.
+     * @param original      announcement already sent to the listeners, not yet including the copy
+     * @param copy          the same announcement posted to another subject
+     */
+    private void notifyCrossPost(Announcement original, Announcement copy) {
+        for (AnnouncementListener c : listeners) {
+            c.crossPosted(original, copy);
+        }
+    }
 }
@@ -0,0 +1,262 @@
+package app.controller;
+
+import app.entity.Announcement;
+import app.entity.Subscription;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Keeps track of which announcements each Discord user has subscribed to and stores the subscriptions in a local
+ * JSON file. Subscriptions are changed through bot commands while announcements are matched from the scraping
+ * thread, so matching always uses a compiled snapshot that is replaced whenever the subscriptions change.
+ */
+public class SubscriptionController {
+    private static final int MAX_SUBSCRIPTIONS_PER_USER = 25;
+    private static final int MAX_PATTERN_LENGTH = 100;
+    // Regular expressions are searched one by one, so their number is limited across all users
+    private static final int MAX_DISTINCT_PATTERNS = 100;
+
+    private Path file;
+    private List<Subscription> subscriptions;
+    private volatile SubscriptionMatcher matcher;
+    private boolean loadFailed;     // Saving would overwrite subscriptions that couldn't be read
+
+    /**
+     * Creates a subscription controller and loads the subscriptions stored in the file, if it exists. If the file
+     * can't be read, changes to subscriptions are kept in memory only, so the file is not overwritten.
+     *
+     * @param fileName      path to the JSON file where subscriptions are stored
+     */
+    public SubscriptionController(String fileName) {
+        file = Paths.get(fileName);
+        subscriptions = new ArrayList<>();
+
+        if (Files.exists(file)) {
+            try {
+                load();
+            } catch (IOException | ParseException e) {
+                System.out.println("Couldn't read subscriptions from file, changes will not be saved.");
+                e.printStackTrace();
+                subscriptions.clear();
+                loadFailed = true;
+            }
+        }
+
+        matcher = new SubscriptionMatcher(subscriptions);
+    }
+
+    /**
+     * Finds the users who have subscribed to the announcement.
+     *
+     * @param announcement      announcement to match
+     * @return                  ids of the Discord users to notify
+     */
+    public Set<String> getSubscribers(Announcement announcement) {
+        return matcher.match(announcement);
+    }
+
+    /**
+     * Return the subscriptions of a user, numbered by their position in the list.
+     *
+     * @param userId        Discord user id
+     * @return              subscriptions owned by the user
+     */
+    public synchronized List<Subscription> getSubscriptions(String userId) {
+        List<Subscription> userSubscriptions = new ArrayList<>();
+
+        for (Subscription s : subscriptions) {
+            if (s.getUserId().equals(userId)) {
+                userSubscriptions.add(s);
+            }
+        }
+
+        return userSubscriptions;
+    }
+
+    /**
+     * Adds a subscription and stores it.
+     *
+     * @param subscription              subscription to add
+     * @throws PatternSyntaxException   if the subscription is a regular expression that is not valid
+     * @throws IllegalArgumentException if the subscription is not allowed, with a message to show the user
+     */
+    public synchronized void subscribe(Subscription subscription) {
+        validate(subscription);
+
+        List<Subscription> userSubscriptions = getSubscriptions(subscription.getUserId());
+
+        for (Subscription s : userSubscriptions) {
+            if (isSameFilter(s, subscription)) {
+                throw new IllegalArgumentException("You are already subscribed to this");
+            }
+        }
+
+        if (userSubscriptions.size() >= MAX_SUBSCRIPTIONS_PER_USER) {
+            throw new IllegalArgumentException(
+                "You can't have more than " + MAX_SUBSCRIPTIONS_PER_USER + " subscriptions");
+        }
+
+        if (subscription.getType() == Subscription.Type.REGEX) {
+            Set<String> patterns = new HashSet<>();
+            for (Subscription s : subscriptions) {
+                if (s.getType() == Subscription.Type.REGEX) {
+                    patterns.add(s.getValue());
+                }
+            }
+
+            // Subscribing to a pattern that is already searched for costs nothing extra
+            if (!patterns.contains(subscription.getValue()) && patterns.size() >= MAX_DISTINCT_PATTERNS) {
+                throw new IllegalArgumentException(
+                    "The bot can't take more regular expressions, please use a keyword instead");
+            }
+        }
+
+        subscriptions.add(subscription);
+        update();
+    }
+
+    /**
+     * Removes one of the user's subscriptions and stores the change.
+     *
+     * @param userId        Discord user id
+     * @param number        position of the subscription in the user's list, starting at 1
+     * @return              the removed subscription, or <code>null</code> if the user has no such subscription
+     */
+    public synchronized Subscription unsubscribe(String userId, int number) {
+        List<Subscription> userSubscriptions = getSubscriptions(userId);
+
+        if (number < 1 || number > userSubscriptions.size()) {
+            return null;
+        }
+
+        Subscription removed = userSubscriptions.get(number - 1);
+        subscriptions.remove(removed);
+        update();
+
+        return removed;
+    }
+
+    /**
+     * Checks that a subscription has a value the matcher can use.
+     *
+     * @param subscription              subscription to check
+     * @throws PatternSyntaxException   if the subscription is a regular expression that is not valid
+     * @throws IllegalArgumentException if the value is missing or too long
+     */
+    private static void validate(Subscription subscription) {
+        if (subscription.getUserId() == null || subscription.getType() == null || subscription.getValue() == null
+                || subscription.getValue().isBlank()) {
+            throw new IllegalArgumentException("Subscriptions need a value");
+        }
+
+        if (subscription.getType() == Subscription.Type.REGEX) {
+            if (subscription.getValue().length() > MAX_PATTERN_LENGTH) {
+                throw new IllegalArgumentException(
+                    "Regular expressions can't be longer than " + MAX_PATTERN_LENGTH + " characters");
+            }
+            Pattern.compile(subscription.getValue());
+        }
+    }
+
+    /**
+     * Checks if two subscriptions match the same announcements. Only regular expressions are case sensitive.
+     */
+    private static boolean isSameFilter(Subscription a, Subscription b) {
+        if (a.getType() != b.getType()) {
+            return false;
+        }
+
+        if (a.getType() == Subscription.Type.REGEX) {
+            return a.getValue().equals(b.getValue());
+        }
+
+        return a.getValue().trim().toLowerCase(Locale.ROOT).equals(b.getValue().trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Recompiles the matcher and writes the subscriptions to the file.
+     */
+    private void update() {
+        matcher = new SubscriptionMatcher(subscriptions);
+
+        if (loadFailed) {
+            return;
+        }
+
+        try {
+            save();
+        } catch (IOException e) {
+            System.out.println("Couldn't write subscriptions to file.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads all subscriptions from the file. Entries that are not valid subscriptions are skipped one by one.
+     *
+     * @throws IOException      if the file couldn't be read
+     * @throws ParseException   if the file is not a JSON array
+     */
+    private void load() throws IOException, ParseException {
+        Object parsed = new JSONParser().parse(Files.readString(file, StandardCharsets.UTF_8));
+        if (!(parsed instanceof JSONArray)) {
+            throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN);
+        }
+        JSONArray json = (JSONArray) parsed;
+
+        for (Object entryObj : json) {
+            try {
+                JSONObject entry = (JSONObject) entryObj;
+
+                Subscription subscription = new Subscription(
+                    (String) entry.get("userId"),
+                    Subscription.Type.valueOf((String) entry.get("type")),
+                    (String) entry.get("value"));
+
+                validate(subscription);
+                subscriptions.add(subscription);
+            } catch (ClassCastException | IllegalArgumentException | NullPointerException e) {
+                System.out.println("Skipped invalid subscription in file: " + entryObj);
+            }
+        }
+    }
+
+    /**
+     * Writes all subscriptions to the file. They are written to a temporary file first which then replaces the
+     * file, so a failed write never leaves a half written file behind.
+     *
+     * @throws IOException      if the file couldn't be written
+     */
+    @SuppressWarnings("unchecked")
+    private void save() throws IOException {
+        JSONArray json = new JSONArray();
+
+        for (Subscription s : subscriptions) {
+            JSONObject entry = new JSONObject();
+            entry.put("userId", s.getUserId());
+            entry.put("type", s.getType().name());
+            entry.put("value", s.getValue());
+            json.add(entry);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, json.toJSONString(), StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
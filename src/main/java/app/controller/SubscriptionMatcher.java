@@ -0,0 +1,200 @@
+package app.controller;
+
+import app.entity.Announcement;
+import app.entity.Subscription;
+import app.util.KeywordAutomaton;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * All subscriptions compiled into lookup structures, so an announcement is matched against every subscription
+ * at once instead of checking each subscription on its own. Courses and authors are looked up by hash, and all
+ * keywords are found in a single pass over the text. A matcher is never changed after it has been built.
+ */
+public class SubscriptionMatcher {
+    // How long one regular expression may search an announcement before it is given up
+    private static final long PATTERN_TIME_LIMIT = 100;
+    // How long all regular expressions together may search one announcement
+    private static final long PATTERN_TIME_BUDGET = 500;
+
+    private Map<String, Set<String>> usersByCourse;
+    private Map<String, Set<String>> usersByAuthor;
+    private KeywordAutomaton keywords;
+    private List<Set<String>> usersByKeyword;
+    private Map<Pattern, Set<String>> usersByPattern;
+
+    /**
+     * Compiles the subscriptions.
+     *
+     * @param subscriptions     subscriptions to match announcements against, with valid regular expressions
+     */
+    public SubscriptionMatcher(List<Subscription> subscriptions) {
+        usersByCourse = new HashMap<>();
+        usersByAuthor = new HashMap<>();
+        usersByKeyword = new ArrayList<>();
+        usersByPattern = new LinkedHashMap<>();
+
+        Map<String, Integer> keywordPositions = new HashMap<>();
+        List<String> keywordList = new ArrayList<>();
+        Map<String, Pattern> patterns = new HashMap<>();
+
+        for (Subscription s : subscriptions) {
+            String value = normalize(s.getValue());
+
+            switch (s.getType()) {
+                case COURSE:
+                    usersByCourse.computeIfAbsent(value, k -> new HashSet<>()).add(s.getUserId());
+                    break;
+
+                case AUTHOR:
+                    usersByAuthor.computeIfAbsent(value, k -> new HashSet<>()).add(s.getUserId());
+                    break;
+
+                case KEYWORD:
+                    // Users subscribing to the same keyword share one entry in the automaton
+                    int position = keywordPositions.computeIfAbsent(value, k -> {
+                        keywordList.add(k);
+                        usersByKeyword.add(new HashSet<>());
+                        return keywordList.size() - 1;
+                    });
+                    usersByKeyword.get(position).add(s.getUserId());
+                    break;
+
+                case REGEX:
+                    // Regular expressions are matched against the original text, so they keep their case
+                    Pattern pattern = patterns.computeIfAbsent(s.getValue(), Pattern::compile);
+                    usersByPattern.computeIfAbsent(pattern, k -> new HashSet<>()).add(s.getUserId());
+                    break;
+            }
+        }
+
+        keywords = new KeywordAutomaton(keywordList);
+    }
+
+    /**
+     * Finds the users who have subscribed to the announcement. Cross-posts are matched on all of their subjects,
+     * both by full course name and by course code, e.g. "ID202812" for "ID202812 Operativsystemer".
+     *
+     * @param announcement      announcement to match
+     * @return                  ids of the Discord users with at least one matching subscription
+     */
+    public Set<String> match(Announcement announcement) {
+        Set<String> users = new HashSet<>();
+
+        for (String subject : announcement.getSubjects()) {
+            String course = normalize(subject);
+            String courseCode = course.split("\\s+")[0];
+
+            users.addAll(usersByCourse.getOrDefault(course, Set.of()));
+            users.addAll(usersByCourse.getOrDefault(courseCode, Set.of()));
+        }
+
+        users.addAll(usersByAuthor.getOrDefault(normalize(announcement.getAuthor()), Set.of()));
+
+        String text = announcement.getTitle().concat("\n").concat(announcement.getBody());
+
+        for (int position : keywords.findAll(text.toLowerCase(Locale.ROOT))) {
+            users.addAll(usersByKeyword.get(position));
+        }
+
+        long budgetDeadline = System.currentTimeMillis() + PATTERN_TIME_BUDGET;
+        int skipped = 0;
+
+        for (Map.Entry<Pattern, Set<String>> p : usersByPattern.entrySet()) {
+            // Skip the search when every user of the pattern already matched
+            if (users.containsAll(p.getValue())) {
+                continue;
+            }
+
+            long deadline = Math.min(System.currentTimeMillis() + PATTERN_TIME_LIMIT, budgetDeadline);
+            if (deadline <= System.currentTimeMillis()) {
+                skipped++;
+            } else if (find(p.getKey(), text, deadline)) {
+                users.addAll(p.getValue());
+            }
+        }
+
+        if (skipped > 0) {
+            System.out.println("Ran out of time, skipped " + skipped + " subscription patterns");
+        }
+
+        return users;
+    }
+
+    /**
+     * Searches the text for the pattern until the deadline. Patterns are written by users, and one that
+     * backtracks endlessly or overflows the stack must not stop announcements from being handled.
+     *
+     * @param pattern   regular expression to search for
+     * @param text      text to search through
+     * @param deadline  time in milliseconds since epoch when the search is given up
+     * @return          <code>true</code> if the pattern was found in time, otherwise <code>false</code>
+     */
+    private static boolean find(Pattern pattern, String text, long deadline) {
+        try {
+            return pattern.matcher(new DeadlineCharSequence(text, deadline)).find();
+        } catch (PatternTimeoutException | StackOverflowError e) {
+            System.out.println("Gave up matching subscription pattern: " + pattern.pattern());
+            return false;
+        }
+    }
+
+    /**
+     * Makes filter values and announcement fields comparable regardless of case and surrounding whitespace.
+     */
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Text that stops a regular expression search once the deadline has passed, by failing when the search
+     * reads the next character.
+     */
+    private static class DeadlineCharSequence implements CharSequence {
+        private String text;
+        private long deadline;
+
+        DeadlineCharSequence(String text, long deadline) {
+            this.text = text;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new PatternTimeoutException();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(text.substring(start, end), deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * Thrown when a regular expression search runs past its deadline.
+     */
+    private static class PatternTimeoutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
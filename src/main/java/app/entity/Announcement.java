@@ -1,10 +1,16 @@
 package app.entity;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Contains the data for announcement
  */
 public class Announcement {
     private long id;
+    private String entryId;
     private String title;
     private String body;
     private String author;
@@ -12,15 +18,19 @@ public class Announcement {
 
     private long timestamp;
     private boolean isRead;     // Has the announcement been read?
+    private List<Announcement> crossPosts;  // Copies of this announcement posted to other subjects
 
-    public Announcement(long id, String title, String body, long timestamp, String author, String subject) {
+    public Announcement(long id, String entryId, String title, String body, long timestamp, String author,
+                        String subject) {
         this.id = id;
+        this.entryId = entryId;
         this.title = title;
         this.body = body;
         this.timestamp = timestamp;
         this.author = author;
         this.isRead = false;
         this.subject = subject;
+        this.crossPosts = new ArrayList<>();
     }
 
     /**
@@ -35,6 +45,15 @@ public class Announcement {
         this.id = id;
     }
 
+    /**
+     * Return the id of the stream entry the announcement was read from. It is unique for every entry, unlike the
+     * announcement id.
+     * @return      stream entry id
+     */
+    public String getEntryId() {
+        return entryId;
+    }
+
     /**
      * Return the title of the announcement.
      * @return      announcement title
@@ -79,6 +98,29 @@ public class Announcement {
         return subject;
     }
 
+    /**
+     * Registers an announcement as a copy of this announcement posted to another subject.
+     * @param copy  announcement with (nearly) the same content as this one
+     */
+    public void addCrossPost(Announcement copy) {
+        crossPosts.add(copy);
+    }
+
+    /**
+     * Return the subjects this announcement has been posted to, including the subjects of its cross-posts.
+     * @return      unique subject names, in the order they were found
+     */
+    public List<String> getSubjects() {
+        Set<String> subjects = new LinkedHashSet<>();
+        subjects.add(subject);
+
+        for (Announcement a : crossPosts) {
+            subjects.add(a.getSubject());
+        }
+
+        return new ArrayList<>(subjects);
+    }
+
     /**
      * Sets the status of this announcement as read and returns itself for simplicity.
      * @return  returns the instance of this class
@@ -0,0 +1,51 @@
+package app.entity;
+
+/**
+ * Contains the data for a Discord user's subscription to announcements matching a filter.
+ */
+public class Subscription {
+
+    /**
+     * What part of an announcement the filter value is matched against.
+     */
+    public enum Type {
+        COURSE,     // Subject name, case insensitive
+        AUTHOR,     // Full author name, case insensitive
+        KEYWORD,    // Text inside title or body, case insensitive
+        REGEX       // Regular expression found inside title or body
+    }
+
+    private String userId;
+    private Type type;
+    private String value;
+
+    public Subscription(String userId, Type type, String value) {
+        this.userId = userId;
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * Return the id of the Discord user who owns the subscription.
+     * @return      Discord user id
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Return the type of filter.
+     * @return      filter type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Return the value announcements are matched against.
+     * @return      filter value
+     */
+    public String getValue() {
+        return value;
+    }
+}
@@ -4,4 +4,6 @@ import app.entity.Announcement;
 
 public interface AnnouncementListener {
     void update(Announcement[] newAnnouncements);
+
+    void crossPosted(Announcement original, Announcement copy);
 }
@@ -0,0 +1,125 @@
+package app.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Aho-Corasick automaton that finds which of a set of keywords occur in a text by reading the text once,
+ * regardless of how many keywords there are. Keywords only match whole words, so "exam" is not found in
+ * "example".
+ */
+public class KeywordAutomaton {
+    private List<Map<Character, Integer>> transitions;
+    private int[] failure;
+    private List<List<Integer>> outputs;
+    private int[] lengths;
+
+    /**
+     * Builds the automaton for the given keywords. Empty keywords are ignored.
+     *
+     * @param keywords      keywords to search for, identified by their position in the list
+     */
+    public KeywordAutomaton(List<String> keywords) {
+        transitions = new ArrayList<>();
+        outputs = new ArrayList<>();
+        lengths = new int[keywords.size()];
+        addState();
+
+        // Build a trie of all keywords
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            if (keyword.isEmpty()) {
+                continue;
+            }
+
+            int state = 0;
+            for (char c : keyword.toCharArray()) {
+                Integer next = transitions.get(state).get(c);
+                if (next == null) {
+                    next = addState();
+                    transitions.get(state).put(c, next);
+                }
+                state = next;
+            }
+            outputs.get(state).add(k);
+            lengths[k] = keyword.length();
+        }
+
+        // Link every state to the longest proper suffix that is also in the trie, breadth first so the
+        // suffix states are always linked before the states that depend on them
+        failure = new int[transitions.size()];
+        Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+
+            for (Map.Entry<Character, Integer> t : transitions.get(state).entrySet()) {
+                int child = t.getValue();
+                int fallback = failure[state];
+
+                while (fallback != 0 && !transitions.get(fallback).containsKey(t.getKey())) {
+                    fallback = failure[fallback];
+                }
+
+                Integer suffix = transitions.get(fallback).get(t.getKey());
+                failure[child] = (suffix != null && suffix != child) ? suffix : 0;
+
+                // A state also matches every keyword its suffix matches
+                outputs.get(child).addAll(outputs.get(failure[child]));
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Finds every keyword occurring in the text.
+     *
+     * @param text      text to search through
+     * @return          positions of the keywords found, as given to the constructor
+     */
+    public Set<Integer> findAll(String text) {
+        Set<Integer> found = new HashSet<>();
+        int state = 0;
+
+        for (int end = 0; end < text.length(); end++) {
+            char c = text.charAt(end);
+
+            while (state != 0 && !transitions.get(state).containsKey(c)) {
+                state = failure[state];
+            }
+            state = transitions.get(state).getOrDefault(c, 0);
+
+            for (int k : outputs.get(state)) {
+                if (isWordBoundary(text, end - lengths[k]) && isWordBoundary(text, end + 1)) {
+                    found.add(k);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Checks that the character at the position does not continue a word, i.e. it is outside the text or it is
+     * neither a letter nor a digit.
+     */
+    private static boolean isWordBoundary(String text, int position) {
+        return position < 0 || position >= text.length() || !Character.isLetterOrDigit(text.charAt(position));
+    }
+
+    /**
+     * Adds an empty state to the automaton.
+     * @return      number of the new state
+     */
+    private int addState() {
+        transitions.add(new HashMap<>());
+        outputs.add(new ArrayList<>());
+        return transitions.size() - 1;
+    }
+}
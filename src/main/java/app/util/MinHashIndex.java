@@ -0,0 +1,203 @@
+package app.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Finds near-duplicate texts using MinHash signatures over word shingles. Signatures are split into
+ * bands and stored in an LSH (locality-sensitive hashing) index, so a lookup only compares against
+ * items that share at least one band instead of every item added so far. Texts too short for MinHash
+ * are only found by an exact match on their words.
+ *
+ * @param <T>   type of the items stored along with their text
+ */
+public class MinHashIndex<T> {
+    private static final int SHINGLE_SIZE = 3;
+    // Short texts like "See attached." are too common to be compared by similarity
+    private static final int MIN_SHINGLES = 5;
+    private static final int BANDS = 32;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int SIGNATURE_SIZE = BANDS * ROWS_PER_BAND;
+
+    // Fixed seed so signatures stay comparable between runs
+    private static final long[] SEEDS = new Random(0x5eed_b1ac_cb0aL).longs(SIGNATURE_SIZE).toArray();
+
+    private double threshold;
+    private List<T> items;
+    private List<int[]> signatures;
+    private Map<Long, List<Integer>> buckets;
+    private Map<String, List<T>> shortTexts;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param threshold     minimum estimated Jaccard similarity (0 to 1) for two texts to be considered duplicates
+     */
+    public MinHashIndex(double threshold) {
+        this.threshold = threshold;
+        items = new ArrayList<>();
+        signatures = new ArrayList<>();
+        buckets = new HashMap<>();
+        shortTexts = new HashMap<>();
+    }
+
+    /**
+     * Adds an item to the index. Texts with fewer than five word shingles (seven words) are too short to be
+     * compared reliably, and are indexed by their exact words instead. Texts without any words are not indexed.
+     *
+     * @param item      item to return when a similar text is looked up later
+     * @param text      text the item is identified by
+     */
+    public void add(T item, String text) {
+        List<String> tokens = tokenize(text);
+        int[] signature = signatureOf(tokens);
+
+        if (signature == null) {
+            if (!tokens.isEmpty()) {
+                shortTexts.computeIfAbsent(String.join(" ", tokens), k -> new ArrayList<>()).add(item);
+            }
+            return;
+        }
+
+        int position = items.size();
+        items.add(item);
+        signatures.add(signature);
+
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(signature, band), k -> new ArrayList<>()).add(position);
+        }
+    }
+
+    /**
+     * Returns the indexed item whose text is most similar to the given text, given that the similarity reaches
+     * the threshold of this index and the item is accepted by the filter. Short texts must have exactly the
+     * same words, ignoring case and punctuation.
+     *
+     * @param text      text to find a near-duplicate of
+     * @param filter    condition the item must meet besides having a similar text
+     * @return          the most similar item, or <code>null</code> if no item is similar enough
+     */
+    public T findSimilar(String text, Predicate<T> filter) {
+        List<String> tokens = tokenize(text);
+        int[] signature = signatureOf(tokens);
+
+        if (signature == null) {
+            // The most recently added item is the best match among equal texts
+            List<T> sameText = shortTexts.getOrDefault(String.join(" ", tokens), List.of());
+            for (int i = sameText.size() - 1; i >= 0; i--) {
+                if (filter.test(sameText.get(i))) {
+                    return sameText.get(i);
+                }
+            }
+            return null;
+        }
+
+        // Only items sharing at least one band with the text are candidates
+        Set<Integer> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            List<Integer> bucket = buckets.get(bandKey(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+
+        T bestItem = null;
+        double bestSimilarity = threshold;
+        for (int candidate : candidates) {
+            double similarity = similarity(signature, signatures.get(candidate));
+            if (similarity >= bestSimilarity && filter.test(items.get(candidate))) {
+                bestItem = items.get(candidate);
+                bestSimilarity = similarity;
+            }
+        }
+
+        return bestItem;
+    }
+
+    /**
+     * Splits a text into lower case words, leaving out punctuation and whitespace.
+     *
+     * @param text      text to split
+     * @return          the words of the text
+     */
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String w : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!w.isEmpty()) {
+                tokens.add(w);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Computes the MinHash signature of the word shingles in a text.
+     *
+     * @param tokens    words of the text to compute the signature of
+     * @return          the signature, or <code>null</code> if the text is too short to compare
+     */
+    private static int[] signatureOf(List<String> tokens) {
+        int shingles = tokens.size() - SHINGLE_SIZE + 1;
+        if (shingles < MIN_SHINGLES) {
+            return null;
+        }
+
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        for (int s = 0; s < shingles; s++) {
+            long shingleHash = String.join(" ", tokens.subList(s, s + SHINGLE_SIZE)).hashCode();
+
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                int h = (int) mix(shingleHash ^ SEEDS[i]);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+
+        return signature;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two texts by the share of equal signature values.
+     */
+    private static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    /**
+     * Combines the rows of one band of a signature into a single bucket key. The band number is part of the key
+     * so equal rows in different bands do not collide.
+     */
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int i = band * ROWS_PER_BAND; i < (band + 1) * ROWS_PER_BAND; i++) {
+            key = mix(key * 31 + signature[i]);
+        }
+        return key;
+    }
+
+    /**
+     * Scrambles the bits of a value (SplitMix64 finalizer) so it can be used as an independent hash function.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}